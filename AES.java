@@ -106,6 +106,24 @@ class AES {
 
 	public static final int[] rconTable = {0x01, 0x02, 0x04, 0x08, 0x10, 0x20, 0x40, 0x80, 0x1b, 0x36, 0x6c, 0xd8, 0xab, 0x4d, 0x9a};
 
+	/**
+	 * Round tables used by encryptBlocks: T0[x] is the column {2*S(x), S(x), S(x), 3*S(x)}, i.e. subBytes and
+	 * mixColumns of a single byte folded into one lookup. T1-T3 are the same column rotated by 1-3 bytes.
+	 * flatSbox is sbox indexed directly by byte value, used for the last round which has no mixColumns.
+	 */
+	private static final int[] T0 = new int[256], T1 = new int[256], T2 = new int[256], T3 = new int[256];
+	private static final int[] flatSbox = new int[256];
+	static {
+		for (int x = 0; x < 256; x++) {
+			int s = sbox[x / 16][x % 16];
+			flatSbox[x] = s;
+			T0[x] = mcLookup(0x02, s) << 24 | s << 16 | s << 8 | mcLookup(0x03, s);
+			T1[x] = Integer.rotateRight(T0[x], 8);
+			T2[x] = Integer.rotateRight(T0[x], 16);
+			T3[x] = Integer.rotateRight(T0[x], 24);
+		}
+	}
+
 
 	public static void main(String[] args) throws NoSuchAlgorithmException {
 		int keySize = 0;		
@@ -178,20 +196,7 @@ class AES {
 			int cpStart = i * BLOCK_LENGTH;
 			int cpEnd = cpStart + BLOCK_LENGTH;
 			stateBlocks[i] = inputToState(Arrays.copyOfRange(paddedInput, cpStart, cpEnd));
-			int[][] state = stateBlocks[i];
-
-			/** AES algorithm */
-			addRoundKey(state, Arrays.copyOfRange(expandedKey, 0, BLOCK_LENGTH));
-			for (int r = 1; r < numRounds; r++) {
-				subBytes(state);
-				shiftRows(state);
-				mixColumns(state);
-				addRoundKey(state, Arrays.copyOfRange(expandedKey, r * BLOCK_LENGTH, (r * BLOCK_LENGTH) + BLOCK_LENGTH));
-			}
-			subBytes(state);
-			shiftRows(state);
-			addRoundKey(state, Arrays.copyOfRange(expandedKey, numRounds * BLOCK_LENGTH, (numRounds * BLOCK_LENGTH) + BLOCK_LENGTH));
-		
+			encryptState(stateBlocks[i], expandedKey, numRounds);
 		}
 
 		/* Converting encrypted state matrices back to string representation */
@@ -204,6 +209,92 @@ class AES {
 		return cipher;
 	}
 
+	/**
+     * Runs the AES rounds over a single state block in place
+     * @param state the state matrix to be encrypted
+     * @param expandedKey the expanded key, as returned by expandKey
+     * @param numRounds the number of encryption rounds based on key size (128->10, 192->12, 256->14)
+     */
+	public static void encryptState(int[][] state, int[] expandedKey, int numRounds) {
+		addRoundKey(state, expandedKey, 0);
+		for (int r = 1; r < numRounds; r++) {
+			subBytes(state);
+			shiftRows(state);
+			mixColumns(state);
+			addRoundKey(state, expandedKey, r * BLOCK_LENGTH);
+		}
+		subBytes(state);
+		shiftRows(state);
+		addRoundKey(state, expandedKey, numRounds * BLOCK_LENGTH);
+	}
+
+	/**
+     * Packs the expanded key into one big endian int per column, the form encryptBlocks consumes
+     * @param expandedKey the expanded key, as returned by expandKey
+     * @return round key words, 4 per round
+     */
+	public static int[] roundKeyWords(int[] expandedKey) {
+		int[] words = new int[expandedKey.length / 4];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = expandedKey[4*i] << 24 | expandedKey[4*i + 1] << 16 | expandedKey[4*i + 2] << 8 | expandedKey[4*i + 3];
+		}
+		return words;
+	}
+
+	/**
+     * Encrypts numBlocks consecutive 16 byte blocks (ECB, no padding) with the same rounds as encryptState, but
+     * working on one int per state column and table lookups (T0-T3) instead of the state matrix. Used for bulk
+     * work such as producing CTR keystream.
+     * @param in,inOff source array and offset of the first plaintext block
+     * @param out,outOff destination array and offset, may be the same range as the input
+     * @param rk round key words, as returned by roundKeyWords
+     * @param numRounds the number of encryption rounds based on key size (128->10, 192->12, 256->14)
+     */
+	public static void encryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int numBlocks, int[] rk, int numRounds) {
+		for (int b = 0; b < numBlocks; b++) {
+			int i = inOff + b * BLOCK_LENGTH;
+			int s0 = getWord(in, i) ^ rk[0];
+			int s1 = getWord(in, i + 4) ^ rk[1];
+			int s2 = getWord(in, i + 8) ^ rk[2];
+			int s3 = getWord(in, i + 12) ^ rk[3];
+
+			int k = 4;
+			for (int r = 1; r < numRounds; r++) {
+				// row n of the output column c comes from column c+n, which is shiftRows
+				int t0 = T0[s0 >>> 24] ^ T1[(s1 >>> 16) & 0xFF] ^ T2[(s2 >>> 8) & 0xFF] ^ T3[s3 & 0xFF] ^ rk[k];
+				int t1 = T0[s1 >>> 24] ^ T1[(s2 >>> 16) & 0xFF] ^ T2[(s3 >>> 8) & 0xFF] ^ T3[s0 & 0xFF] ^ rk[k + 1];
+				int t2 = T0[s2 >>> 24] ^ T1[(s3 >>> 16) & 0xFF] ^ T2[(s0 >>> 8) & 0xFF] ^ T3[s1 & 0xFF] ^ rk[k + 2];
+				int t3 = T0[s3 >>> 24] ^ T1[(s0 >>> 16) & 0xFF] ^ T2[(s1 >>> 8) & 0xFF] ^ T3[s2 & 0xFF] ^ rk[k + 3];
+				s0 = t0; s1 = t1; s2 = t2; s3 = t3;
+				k += 4;
+			}
+
+			int o = outOff + b * BLOCK_LENGTH;
+			putWord(out, o, lastRound(s0, s1, s2, s3) ^ rk[k]);
+			putWord(out, o + 4, lastRound(s1, s2, s3, s0) ^ rk[k + 1]);
+			putWord(out, o + 8, lastRound(s2, s3, s0, s1) ^ rk[k + 2]);
+			putWord(out, o + 12, lastRound(s3, s0, s1, s2) ^ rk[k + 3]);
+		}
+	}
+
+	/**
+     * subBytes + shiftRows for one output column of the final round
+     */
+	private static int lastRound(int a, int b, int c, int d) {
+		return flatSbox[a >>> 24] << 24 | flatSbox[(b >>> 16) & 0xFF] << 16 | flatSbox[(c >>> 8) & 0xFF] << 8 | flatSbox[d & 0xFF];
+	}
+
+	private static int getWord(byte[] b, int i) {
+		return (b[i] & 0xFF) << 24 | (b[i + 1] & 0xFF) << 16 | (b[i + 2] & 0xFF) << 8 | (b[i + 3] & 0xFF);
+	}
+
+	private static void putWord(byte[] b, int i, int w) {
+		b[i] = (byte) (w >>> 24);
+		b[i + 1] = (byte) (w >>> 16);
+		b[i + 2] = (byte) (w >>> 8);
+		b[i + 3] = (byte) w;
+	}
+
 	/**
      * Performs the decryption of the cipher text
      * @param input ciphertext to be decrypted
@@ -298,8 +389,20 @@ class AES {
      * @param expKeySlice portion of the expanded key to be XORed with the state
      */
     public static void addRoundKey(int[][] state, int[] expKeySlice) {
+    	addRoundKey(state, expKeySlice, 0);
+    }
+
+    /**
+     * Same as addRoundKey(state, expKeySlice) but reads the round key straight out of the expanded key,
+     * saving a copy of the slice every round
+     * @param offset index of the first byte of the round key in expandedKey
+     */
+    public static void addRoundKey(int[][] state, int[] expandedKey, int offset) {
+    	// the key slice is in column major order, same as the state
     	for (int row = 0; row < STATE_ROWS; row++) {
-			state[row] = XOR(state[row], EK(expKeySlice, row * 4));
+    		for (int col = 0; col < STATE_COLS; col++) {
+    			state[row][col] ^= expandedKey[offset + row + STATE_COLS*col];
+    		}
     	}
     }
 
@@ -436,10 +539,12 @@ class AES {
      * @param gVal,sVal cell values taken from galois field and tState used to look up value from LTable and ETable
      */
 	public static int mcLookup(int gVal, int sVal) {
-		// sVal multiplied by 1 is itself so only lookup sVal
+		// sVal multiplied by 1 is itself, and 0 has no logarithm so the product is 0
 		if (gVal == 0x01) {
-			int l = LTable[sVal / 16][sVal % 16];
-			return ETable[l / 16][l % 16];
+			return sVal;
+		}
+		if (sVal == 0x00) {
+			return 0x00;
 		}
 		int l1 = LTable[gVal / 16][gVal % 16];
 		int l2 = LTable[sVal / 16][sVal % 16];
@@ -0,0 +1,605 @@
+/*
+**	CTR_DRBG (no derivation function) built on the AES block cipher in AES.java
+**	NIST SP 800-90A Rev. 1, section 10.2.1:
+**	https://nvlpubs.nist.gov/nistpubs/SpecialPublications/NIST.SP.800-90Ar1.pdf
+*/
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import java.security.SecureRandom;
+
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+
+/**
+ * Deterministic random bit generator running AES in counter mode. Meant for bulk random data (load generators,
+ * test data) where a shared SecureRandom becomes a point of contention.
+ *
+ * Instances are NOT thread safe and hold no locks - use current() to get the generator owned by the calling thread.
+ */
+class CtrDrbg extends Random {
+	private static final long serialVersionUID = 1L;
+
+	public static final int DEFAULT_KEY_LENGTH = 256; // in bits
+	public static final long DEFAULT_RESEED_INTERVAL = 1L << 24; // generate requests between reseeds
+
+	// SP 800-90A Table 3 limits for CTR_DRBG with AES
+	public static final long MAX_RESEED_INTERVAL = 1L << 48;
+	public static final int MAX_BYTES_PER_REQUEST = 1 << 16; // 2^19 bits
+
+	// small requests (nextInt, nextLong, short nextBytes) are served from one generate call of this size
+	private static final int BUFFER_SIZE = 4096;
+
+	private static final ThreadLocal<CtrDrbg> CURRENT = ThreadLocal.withInitial(CtrDrbg::new);
+
+	private final int keyLength; // in bytes
+	private final int seedLength; // keyLength + BLOCK_LENGTH
+	private final int numAESRounds, numKeyExpRounds;
+	private final long reseedInterval;
+	private final SecureRandom entropySource;
+
+	/* Working state: Key (kept as expanded round key words) and V */
+	private int[] roundKey;
+	private final byte[] v = new byte[AES.BLOCK_LENGTH];
+	private long reseedCounter;
+
+	/* Scratch space reused across calls */
+	private final byte[] block = new byte[AES.BLOCK_LENGTH];
+	private final byte[] temp;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int bufferPos = BUFFER_SIZE;
+
+
+	/**
+	 * AES-256 generator seeded from a fresh SecureRandom with the default reseed interval
+	 */
+	public CtrDrbg() {
+		this(DEFAULT_KEY_LENGTH, DEFAULT_RESEED_INTERVAL, new SecureRandom(), null);
+	}
+
+	/**
+	 * @param keySize AES key size in bits, 128, 192 or 256
+	 * @param reseedInterval number of generate requests after which fresh entropy is pulled from entropySource
+	 * @param entropySource source of the seed material, only touched on instantiation and reseed
+	 * @param personalization optional personalization string of at most seedLength bytes, may be null
+	 */
+	public CtrDrbg(int keySize, long reseedInterval, SecureRandom entropySource, byte[] personalization) {
+		this(keySize, reseedInterval, entropySource);
+		instantiate(entropySource.generateSeed(seedLength), personalization);
+	}
+
+	/**
+	 * Instantiates from caller supplied entropy, used to run known answer tests. The generator has no entropy source
+	 * so it refuses to generate once the reseed interval is reached, unless reseed(entropy, ...) is called.
+	 * @param entropyInput exactly seedLength bytes (keySize / 8 + 16)
+	 */
+	public CtrDrbg(int keySize, byte[] entropyInput, byte[] personalization) {
+		this(keySize, DEFAULT_RESEED_INTERVAL, null);
+		instantiate(entropyInput, personalization);
+	}
+
+	private CtrDrbg(int keySize, long reseedInterval, SecureRandom entropySource) {
+		if (keySize != 128 && keySize != 192 && keySize != 256) {
+			throw new IllegalArgumentException("Invalid key size. Key size must be equal to 128, 192 or 256.");
+		}
+		if (reseedInterval < 1 || reseedInterval > MAX_RESEED_INTERVAL) {
+			throw new IllegalArgumentException("Reseed interval must be between 1 and 2^48.");
+		}
+		this.keyLength = keySize / 8;
+		this.seedLength = keyLength + AES.BLOCK_LENGTH;
+		this.numAESRounds = keyLength / 4 + 6; // 10, 12 or 14
+		this.numKeyExpRounds = 4 * (numAESRounds + 1); // 44, 52 or 60
+		this.reseedInterval = reseedInterval;
+		this.entropySource = entropySource;
+		this.temp = new byte[seedLength + AES.BLOCK_LENGTH];
+	}
+
+	/**
+	 * Returns the generator owned by the calling thread, creating it on first use. No state is shared between
+	 * threads so concurrent callers never wait on each other.
+	 */
+	public static CtrDrbg current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * CTR_DRBG_Instantiate_algorithm: Key and V start at zero and are updated with entropy XOR personalization
+	 */
+	private void instantiate(byte[] entropyInput, byte[] personalization) {
+		byte[] seedMaterial = seedMaterial(entropyInput, personalization);
+		setKey(new byte[keyLength]);
+		Arrays.fill(v, (byte) 0);
+		update(seedMaterial);
+		Arrays.fill(seedMaterial, (byte) 0);
+		reseedCounter = 1;
+		dropBuffer();
+	}
+
+	/**
+	 * CTR_DRBG_Reseed_algorithm: mixes new entropy into the current state and restarts the reseed counter.
+	 * Any buffered output produced under the old state is dropped.
+	 * @param entropyInput exactly seedLength bytes
+	 * @param additionalInput optional, at most seedLength bytes, may be null
+	 */
+	public void reseed(byte[] entropyInput, byte[] additionalInput) {
+		byte[] seedMaterial = seedMaterial(entropyInput, additionalInput);
+		update(seedMaterial);
+		Arrays.fill(seedMaterial, (byte) 0);
+		reseedCounter = 1;
+		dropBuffer();
+	}
+
+	/**
+	 * Reseeds from the entropy source given at construction
+	 */
+	public void reseed() {
+		if (entropySource == null) {
+			throw new IllegalStateException("No entropy source, use reseed(entropyInput, additionalInput).");
+		}
+		reseed(entropySource.generateSeed(seedLength), null);
+	}
+
+	/**
+	 * CTR_DRBG_Generate_algorithm: one generate request, written straight into out. The counter values for all full
+	 * blocks are laid out in the destination array and encrypted in place with a single AES.encryptBlocks call,
+	 * only a trailing partial block goes through scratch space.
+	 * @param out,off,len destination range, len at most MAX_BYTES_PER_REQUEST
+	 * @param additionalInput optional, at most seedLength bytes, may be null
+	 */
+	public void generate(byte[] out, int off, int len, byte[] additionalInput) {
+		if (len < 0 || len > MAX_BYTES_PER_REQUEST) {
+			throw new IllegalArgumentException("Request length must be between 0 and " + MAX_BYTES_PER_REQUEST + " bytes.");
+		}
+		// before any state changes, so a bad range cannot leave a request half done
+		if (off < 0 || off > out.length - len) {
+			throw new IndexOutOfBoundsException("Range [" + off + ", " + off + " + " + len + ") out of bounds for length " + out.length);
+		}
+		if (reseedCounter > reseedInterval) {
+			if (entropySource == null) {
+				throw new IllegalStateException("Reseed required.");
+			}
+			reseed(entropySource.generateSeed(seedLength), additionalInput);
+			additionalInput = null;
+		}
+
+		byte[] additional = null;
+		if (additionalInput != null && additionalInput.length > 0) {
+			additional = seedMaterial(new byte[seedLength], additionalInput);
+			update(additional);
+		}
+
+		int numFullBlocks = len / AES.BLOCK_LENGTH;
+		int fullBlocksEnd = off + numFullBlocks * AES.BLOCK_LENGTH;
+		for (int i = off; i < fullBlocksEnd; i += AES.BLOCK_LENGTH) {
+			increment(v);
+			System.arraycopy(v, 0, out, i, AES.BLOCK_LENGTH);
+		}
+		AES.encryptBlocks(out, off, out, off, numFullBlocks, roundKey, numAESRounds);
+		if (fullBlocksEnd < off + len) {
+			increment(v);
+			AES.encryptBlocks(v, 0, block, 0, 1, roundKey, numAESRounds);
+			System.arraycopy(block, 0, out, fullBlocksEnd, off + len - fullBlocksEnd);
+		}
+
+		update(additional);
+		reseedCounter++;
+	}
+
+	/**
+	 * Fills bytes with random output. Short requests are served from the internal buffer, long ones are generated
+	 * directly into the array in MAX_BYTES_PER_REQUEST chunks.
+	 */
+	@Override
+	public void nextBytes(byte[] bytes) {
+		int off = 0;
+		int len = bytes.length;
+
+		int buffered = Math.min(len, BUFFER_SIZE - bufferPos);
+		System.arraycopy(buffer, bufferPos, bytes, off, buffered);
+		Arrays.fill(buffer, bufferPos, bufferPos + buffered, (byte) 0);
+		bufferPos += buffered;
+		off += buffered;
+		len -= buffered;
+
+		while (len >= BUFFER_SIZE) {
+			int chunk = Math.min(len, MAX_BYTES_PER_REQUEST);
+			generate(bytes, off, chunk, null);
+			off += chunk;
+			len -= chunk;
+		}
+
+		if (len > 0) {
+			generate(buffer, 0, BUFFER_SIZE, null);
+			System.arraycopy(buffer, 0, bytes, off, len);
+			Arrays.fill(buffer, 0, len, (byte) 0);
+			bufferPos = len;
+		}
+	}
+
+	/**
+	 * Like SecureRandom.setSeed this supplements the state rather than replacing it: the seed is mixed in with
+	 * CTR_DRBG_Update the same way additional input is, and buffered output is dropped, including the Gaussian
+	 * Random caches for nextGaussian. The call Random's constructor makes before the generator is instantiated
+	 * only reaches Random's own (unused) seed.
+	 */
+	@Override
+	public void setSeed(long seed) {
+		super.setSeed(seed);
+		if (roundKey == null) {
+			return;
+		}
+		byte[] seedBytes = new byte[8];
+		for (int i = 0; i < 8; i++) {
+			seedBytes[i] = (byte) (seed >>> (56 - 8 * i));
+		}
+		byte[] seedMaterial = seedMaterial(new byte[seedLength], seedBytes);
+		update(seedMaterial);
+		Arrays.fill(seedMaterial, (byte) 0);
+		dropBuffer();
+	}
+
+	/**
+	 * Wipes output generated under the previous state that has not been handed out yet
+	 */
+	private void dropBuffer() {
+		Arrays.fill(buffer, (byte) 0);
+		bufferPos = BUFFER_SIZE;
+	}
+
+	/**
+	 * Backs nextInt, nextLong, nextDouble etc. of java.util.Random with buffered DRBG output
+	 */
+	@Override
+	protected int next(int bits) {
+		if (BUFFER_SIZE - bufferPos < 4) {
+			generate(buffer, 0, BUFFER_SIZE, null);
+			bufferPos = 0;
+		}
+		int r = (buffer[bufferPos] & 0xFF) << 24 | (buffer[bufferPos + 1] & 0xFF) << 16
+			| (buffer[bufferPos + 2] & 0xFF) << 8 | (buffer[bufferPos + 3] & 0xFF);
+		Arrays.fill(buffer, bufferPos, bufferPos + 4, (byte) 0);
+		bufferPos += 4;
+		return r >>> (32 - bits);
+	}
+
+	/**
+	 * CTR_DRBG_Update: encrypts successive counter values to get seedLength new bytes, XORs in providedData and
+	 * splits the result into the new Key and V.
+	 * @param providedData exactly seedLength bytes, or null for all zeros
+	 */
+	private void update(byte[] providedData) {
+		for (int i = 0; i < seedLength; i += AES.BLOCK_LENGTH) {
+			increment(v);
+			AES.encryptBlocks(v, 0, temp, i, 1, roundKey, numAESRounds);
+		}
+		if (providedData != null) {
+			for (int i = 0; i < seedLength; i++) {
+				temp[i] ^= providedData[i];
+			}
+		}
+		setKey(Arrays.copyOfRange(temp, 0, keyLength));
+		System.arraycopy(temp, keyLength, v, 0, AES.BLOCK_LENGTH);
+		Arrays.fill(temp, (byte) 0);
+	}
+
+	/**
+	 * Replaces the key and wipes every copy of it this class holds: the bytes, their int form, the expanded key
+	 * (which starts with the raw key) and the previous round key words
+	 */
+	private void setKey(byte[] key) {
+		int[] keyArr = AES.convertToIntArray(key);
+		int[] expandedKey = AES.expandKey(keyArr, numAESRounds, numKeyExpRounds);
+		int[] oldRoundKey = roundKey;
+		roundKey = AES.roundKeyWords(expandedKey);
+		Arrays.fill(key, (byte) 0);
+		Arrays.fill(keyArr, 0);
+		Arrays.fill(expandedKey, 0);
+		if (oldRoundKey != null) {
+			Arrays.fill(oldRoundKey, 0);
+		}
+	}
+
+	/**
+	 * Without a derivation function the seed material is the entropy input XORed with the (zero padded)
+	 * personalization string or additional input
+	 */
+	private byte[] seedMaterial(byte[] entropyInput, byte[] input) {
+		if (entropyInput == null || entropyInput.length != seedLength) {
+			throw new IllegalArgumentException("Entropy input must be exactly " + seedLength + " bytes.");
+		}
+		if (input != null && input.length > seedLength) {
+			throw new IllegalArgumentException("Personalization string / additional input must be at most " + seedLength + " bytes.");
+		}
+		byte[] seedMaterial = entropyInput.clone();
+		if (input != null) {
+			for (int i = 0; i < input.length; i++) {
+				seedMaterial[i] ^= input[i];
+			}
+		}
+		return seedMaterial;
+	}
+
+	/**
+	 * V = (V + 1) mod 2^128, V being big endian
+	 */
+	private static void increment(byte[] counter) {
+		for (int i = counter.length - 1; i >= 0; i--) {
+			if (++counter[i] != 0) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Random is Serializable, but writing out Key, V and unread buffered output would let the generator's
+	 * state be copied and replayed, so serialization is refused both ways
+	 */
+	private void writeObject(ObjectOutputStream out) throws NotSerializableException {
+		throw new NotSerializableException("CtrDrbg");
+	}
+
+	private void readObject(ObjectInputStream in) throws NotSerializableException {
+		throw new NotSerializableException("CtrDrbg");
+	}
+
+
+	public static void main(String[] args) throws InterruptedException {
+		if (!selfTest()) {
+			System.out.println("Known answer tests: FAILED");
+			System.exit(1);
+		}
+		System.out.println("Known answer tests: PASSED");
+
+		int mb = 64;
+		if (args.length > 0) {
+			try {
+				mb = Integer.parseInt(args[0]);
+			} catch(NumberFormatException e) {
+				System.out.println("Invalid argument. Expected number of MB to generate per run.");
+				return;
+			}
+		}
+
+		// every run is preceded by an untimed pass of the same size so the JIT has compiled the generator
+		System.out.println();
+		System.out.println("Single thread, " + mb + " MB in 1 MB nextBytes calls:");
+		benchmark("CtrDrbg", CtrDrbg.current()::nextBytes, mb);
+		benchmark("SecureRandom", new SecureRandom()::nextBytes, mb);
+		SplittableRandom splittable = new SplittableRandom();
+		benchmark("SplittableRandom", out -> splittableNextBytes(splittable, out), mb);
+
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		SecureRandom shared = new SecureRandom();
+		SplittableRandom[] splits = new SplittableRandom[numThreads];
+		SplittableRandom root = new SplittableRandom();
+		for (int t = 0; t < numThreads; t++) {
+			splits[t] = root.split();
+		}
+		System.out.println();
+		System.out.println(numThreads + " threads, " + mb + " MB each in 16 byte nextBytes calls:");
+		benchmarkThreads("CtrDrbg.current()", t -> CtrDrbg.current()::nextBytes, numThreads, mb);
+		benchmarkThreads("shared SecureRandom", t -> shared::nextBytes, numThreads, mb);
+		benchmarkThreads("SplittableRandom.split", t -> out -> splittableNextBytes(splits[t], out), numThreads, mb);
+	}
+
+	/**
+	 * Known answer tests: the FIPS-197 Appendix C block vectors for each key size through both AES.encryptBlocks
+	 * and AES.encryptState, then CTR_DRBG vectors (no df, no prediction resistance) in the CAVP layout: instantiate
+	 * with personalization, optionally reseed with additional input, generate 512 bits twice with additional input,
+	 * compare the second output. Only the first DRBG case is a CAVP vector (drbgvectors_no_reseed); the CAVP files are not shipped
+	 * with this repo, so the others use fixed inputs and outputs taken from the JDK's SP 800-90A implementation
+	 * (sun.security.provider.CtrDrbg, no_df), cross-checked against a second one on a separate AES library.
+	 * @return true if all vectors match
+	 */
+	public static boolean selfTest() {
+		boolean ok = blockKnownAnswer("000102030405060708090a0b0c0d0e0f", "69c4e0d86a7b0430d8cdb78070b4c55a")
+			&& blockKnownAnswer("000102030405060708090a0b0c0d0e0f1011121314151617", "dda97ca4864cdfe06eaf70a0ec0d7191")
+			&& blockKnownAnswer("000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f", "8ea2b7ca516745bfeafc49904b496089");
+
+		// CAVP drbgvectors_no_reseed, AES-128 no df, COUNT = 0 (no personalization or additional input)
+		ok = ok && knownAnswer(128,
+			"ce50f33da5d4c1d3d4004eb35244b7f2cd7f2e5076fbf6780a7ff634b249a5fc", null,
+			null, null, null, null,
+			"6545c0529d372443b392ceb3ae3a99a30f963eaf313280f1d1a1e87f9db373d3"
+			+ "61e75d18018266499cccd64d9bbb8de0185f213383080faddec46bae1f784e5a");
+
+		// AES-128, personalization and additional input
+		ok = ok && knownAnswer(128,
+			"682ff69eb5e79d87fa8bbd264915c3beeb36435c1b270c3e936c3f34d9260401",
+			"2a7c520ede21f4a4ac8c5abe9fe0a3d8ff1cfeafffdb5c85639a1ccef4523b4f",
+			null, null,
+			"41739a685bb2938bc23db61a9aff02d43efbcb420b4fd02ac0a0c106299bdb33",
+			"63144f272cbbf656c2cc6a19cd54eee11fe9c5752b82d5f03978b7f9d0a04932",
+			"67f14308441688a4aa9df0d0a20745a926734835b9adf0b148d2e3772d175467"
+			+ "5cbb49a3bc6fa9343b9c2ea900a8994ba5e650d7b850440ce8083f65c797a04c");
+
+		// AES-192, personalization and additional input
+		ok = ok && knownAnswer(192,
+			"f684c841ae51b2c9bb5c851c77520e9e6a215843e1749dac98fe6fddc5bd5545072cf482b3a27e16",
+			"da8861fff501a3aac1f4a0411a9bce903cd1f9ce2a8a2301b94d836b4e8e6bf9c6b76775815e4871",
+			null, null,
+			"358b11069532d4189f2b198b9574f878afc3ba0c5cad0003c37ec4248efdf340c2082e822f09e1f4",
+			"568683f1867daa99e023a89813f2cc407e20d21daab7b6107059fe011152a1e68bb92c18c58337a0",
+			"d5007e84e056bd00427a9f5e482fdd23fc62ef65e55de242c2db0c1d69c4873b"
+			+ "523ba8f0544d52590c085907f0903187e69e99bd5fd6b816bd6cff7406969e07");
+
+		// AES-256, personalization and additional input
+		ok = ok && knownAnswer(256,
+			"d6e9170c5c630dccfc9a2fc2747e32448df50c67a2b086affb214f606bd3e17e71af8c1fb99c640e18b987361129f470",
+			"3eab7e91f964c918be66dd2d03ed954094314e8fcfbbc59bdc881899596b060d282b2e27c5442291c9e9ddb95893d2ae",
+			null, null,
+			"9a3211e8a3a7573a9f305df55cdd8b5ab199b541bb1db3b613cd0a665543212fcce4873d274df48fbe3b54e8a7f20c58",
+			"16f36f83d5974b6be4a960fac51fa6c9a1e7c1527ecf6e16b500bcc13977fdb93fa2942e48856f711772d55c20c49844",
+			"3a39ff7109855eeccc3aa0bc83b6685f8fad10e54601df50761017b379b0a036"
+			+ "615e390aaa42ac4a2a1fc3084560f05b721c8dc683c5fe92f9b2b6a4a3f422c5");
+
+		// AES-128, reseed with additional input
+		ok = ok && knownAnswer(128,
+			"7bb950c37aa08e7a64e2eb5354cdfc818026c0b0bacbbc12ae83edf77cc71871",
+			"bcd2cc347087f0cde37861fb5a4d041bfc76dd918e311e1af2bbcc33d701f963",
+			"868c4b51d2df0f2e4ac92c757cd51b3dfedf64a661066beac1bdd6a4872c8721",
+			"97edf611e2a1601b3920c280dfc47100ab95e7c3371c8954dcc915c873ec5629",
+			"23a13a50f084708968ebc279e6bd35926d27c9f798ee2a690ba29494dbfe2f23",
+			"28c0626544d179c99c40495a7b2ea0849e556cd211b6ae3584a435afd4b591a9",
+			"992c1876f9df11097f8cb9d711b54f5b5fd43a0bc52b1dec3684335b3e384ff5"
+			+ "2d9f88a3864cff2617977049ec25fa5f96deeef81cc0274f41beb033b93bc2c4");
+
+		// AES-256, reseed with additional input
+		ok = ok && knownAnswer(256,
+			"11bb6cdffaaba9c762849f5c09531ecacf67dd5abfe7e920c6ebcfc0d53945788cd34f2709abbb90b8351ccecddeb4bd",
+			"878509693cd5e2f7852b23d0a1c90ba9e2b9014f90bb11aa897fc12cb4eb14b43f685a58b82d97e40fba2d3c8e6561f5",
+			"75afa9c43b046ca3ea2cfb255053fbba910a3affeb149557e9a400cb87443bc11152f014d3e65da667bca98125758de1",
+			"b74ad7f61b13a651aba2ec5529fe6885adbf598ca659bf3f411428216c63af37c861a0873513f8ec7137539d4c327935",
+			"f60f95981de035a90dfb00a6585127b3be333120da85dbdb2e3c8ef922f9e8959d6ad8531a1ea43171303d24b9b43ebe",
+			"44781ecc7dd597950f9ce69b964a415925ba4e08d41033f2cc88544c49c9bcd57fac517a4b5473c7c18c4d881a3c4764",
+			"29b70b2b5e58695e53c144065e561813919ca879c1d779b4cb1913daf7679f38"
+			+ "ba2a86eb87db40bfe51a5afdd73a9791d5cb50842a0e0075c14195543f1dac04");
+		return ok;
+	}
+
+	private static boolean blockKnownAnswer(String key, String cipherText) {
+		int[] keyArr = AES.convertToIntArray(hexToBytes(key));
+		int numRounds = keyArr.length / 4 + 6;
+		int[] rk = AES.roundKeyWords(AES.expandKey(keyArr, numRounds, 4 * (numRounds + 1)));
+		byte[] block = hexToBytes("00112233445566778899aabbccddeeff");
+
+		// the state matrix path behind AES.encrypt, column major like the block
+		int[][] state = new int[AES.STATE_ROWS][AES.STATE_COLS];
+		for (int i = 0; i < AES.BLOCK_LENGTH; i++) {
+			state[i % AES.STATE_ROWS][i / AES.STATE_ROWS] = block[i] & 0xFF;
+		}
+		AES.encryptState(state, AES.expandKey(keyArr, numRounds, 4 * (numRounds + 1)), numRounds);
+
+		AES.encryptBlocks(block, 0, block, 0, 1, rk, numRounds);
+		return Arrays.equals(block, hexToBytes(cipherText)) && AES.matrixToString(state).equalsIgnoreCase(cipherText);
+	}
+
+	/**
+	 * One DRBG case, any of the hex inputs other than entropyInput and returnedBits may be null (empty).
+	 * A non-null entropyReseed runs reseed(entropyReseed, additionalReseed) before the two generate calls.
+	 */
+	private static boolean knownAnswer(int keySize, String entropyInput, String personalization,
+			String entropyReseed, String additionalReseed, String additional1, String additional2, String returnedBits) {
+		byte[] expected = hexToBytes(returnedBits);
+		CtrDrbg drbg = new CtrDrbg(keySize, hexToBytes(entropyInput), hexToBytes(personalization));
+		if (entropyReseed != null) {
+			drbg.reseed(hexToBytes(entropyReseed), hexToBytes(additionalReseed));
+		}
+		byte[] out = new byte[expected.length];
+		drbg.generate(out, 0, out.length, hexToBytes(additional1));
+		drbg.generate(out, 0, out.length, hexToBytes(additional2));
+		return Arrays.equals(out, expected);
+	}
+
+	private static byte[] hexToBytes(String hex) {
+		if (hex == null) {
+			return null;
+		}
+		byte[] b = new byte[hex.length() / 2];
+		for (int i = 0; i < b.length; i++) {
+			b[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+		}
+		return b;
+	}
+
+	private static void benchmark(String name, Consumer<byte[]> nextBytes, int mb) {
+		byte[] out = new byte[1 << 20];
+		for (int i = 0; i < mb; i++) {
+			nextBytes.accept(out);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < mb; i++) {
+			nextBytes.accept(out);
+		}
+		printThroughput(name, mb, System.nanoTime() - start);
+	}
+
+	/**
+	 * Each thread gets its generator and does its warm-up pass first, the clock only starts once all of them
+	 * are ready. If any thread throws, the run is reported as failed instead of timed.
+	 * @param generators returns the nextBytes of the generator thread t uses, called on that thread
+	 */
+	private static void benchmarkThreads(String name, IntFunction<Consumer<byte[]>> generators, int numThreads, int mb) throws InterruptedException {
+		long calls = ((long) mb << 20) / 16;
+		CountDownLatch ready = new CountDownLatch(numThreads);
+		CountDownLatch go = new CountDownLatch(1);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread[] threads = new Thread[numThreads];
+		for (int t = 0; t < numThreads; t++) {
+			int index = t;
+			threads[t] = new Thread(() -> {
+				Consumer<byte[]> nextBytes;
+				byte[] out = new byte[16];
+				try {
+					nextBytes = generators.apply(index);
+					for (long i = 0; i < calls; i++) {
+						nextBytes.accept(out);
+					}
+				} catch(RuntimeException e) {
+					failure.compareAndSet(null, e);
+					return;
+				} finally {
+					// also on failure, or main would wait on ready forever
+					ready.countDown();
+				}
+				try {
+					go.await();
+					if (failure.get() != null) {
+						return;
+					}
+					for (long i = 0; i < calls; i++) {
+						nextBytes.accept(out);
+					}
+				} catch(InterruptedException | RuntimeException e) {
+					failure.compareAndSet(null, e);
+				}
+			});
+			threads[t].start();
+		}
+		ready.await();
+		long start = System.nanoTime();
+		go.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		if (failure.get() != null) {
+			System.out.println(String.format("  %-24s failed: %s", name, failure.get()));
+			return;
+		}
+		printThroughput(name, (long) mb * numThreads, System.nanoTime() - start);
+	}
+
+	/**
+	 * SplittableRandom.nextBytes is Java 17+, so fill the array from nextLong the same way it does
+	 */
+	private static void splittableNextBytes(SplittableRandom random, byte[] bytes) {
+		int i = 0;
+		for (int words = bytes.length >> 3; words > 0; words--) {
+			long r = random.nextLong();
+			for (int n = 0; n < 8; n++) {
+				bytes[i++] = (byte) r;
+				r >>>= 8;
+			}
+		}
+		if (i < bytes.length) {
+			long r = random.nextLong();
+			while (i < bytes.length) {
+				bytes[i++] = (byte) r;
+				r >>>= 8;
+			}
+		}
+	}
+
+	private static void printThroughput(String name, long mb, long nanos) {
+		System.out.println(String.format("  %-24s %8.1f MB/s", name, mb / (nanos / 1e9)));
+	}
+}